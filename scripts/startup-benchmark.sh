@@ -0,0 +1,79 @@
+#!/usr/bin/env bash
+#
+# Startup benchmark: time-to-first-request and RSS of the default build
+# versus the optimized build (-Pprod: no devtools, AOT, CDS, lazy init).
+#
+# Usage: scripts/startup-benchmark.sh [runs]
+#   BENCH_URL   request to wait for (default http://localhost:8080/api/products)
+#   SKIP_BUILD  set to 1 to reuse target/bench from a previous run
+#   MVN         maven command (default sh ./mvnw)
+#
+# Requires MongoDB on localhost:27017, as the application itself.
+
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+RUNS="${1:-5}"
+URL="${BENCH_URL:-http://localhost:8080/api/products}"
+JAR="spring-webflux-0.0.1-SNAPSHOT.jar"
+BENCH_DIR="target/bench"
+MVN="${MVN:-sh ./mvnw}"
+
+if [ "${SKIP_BUILD:-0}" != "1" ]; then
+	$MVN -B -q -DskipTests clean package
+	mkdir -p "$BENCH_DIR/default"
+	cp "target/$JAR" "$BENCH_DIR/default/"
+	$MVN -B -q -DskipTests -Pprod package
+	cp -r target/extracted "$BENCH_DIR/optimized"
+fi
+
+now_ms() {
+	date +%s%3N
+}
+
+# run <dir> <java args...> -> prints "<ms to first request> <rss kB>"
+run() {
+	local dir="$1"
+	shift
+	local start pid rss
+	start=$(now_ms)
+	(cd "$dir" && exec java "$@" -jar "$JAR") > "$BENCH_DIR/app.log" 2>&1 &
+	pid=$!
+	# any HTTP status counts as served
+	until [ "$(curl -s -o /dev/null -w '%{http_code}' "$URL")" != "000" ]; do
+		if ! kill -0 "$pid" 2> /dev/null; then
+			echo "application exited, see $BENCH_DIR/app.log" >&2
+			exit 1
+		fi
+		sleep 0.05
+	done
+	echo -n "$(($(now_ms) - start)) "
+	rss=$(awk '/VmRSS/ {print $2}' "/proc/$pid/status")
+	kill "$pid"
+	wait "$pid" 2> /dev/null || true
+	echo "$rss"
+}
+
+# bench <name> <dir> <java args...>
+bench() {
+	local name="$1"
+	shift
+	local total_ms=0 total_rss=0 ms rss
+	for i in $(seq "$RUNS"); do
+		read -r ms rss < <(run "$@")
+		echo "$name run $i: ${ms} ms to first request, RSS ${rss} kB"
+		total_ms=$((total_ms + ms))
+		total_rss=$((total_rss + rss))
+	done
+	printf '%-10s avg %6d ms to first request, avg RSS %7d kB\n' \
+		"$name" $((total_ms / RUNS)) $((total_rss / RUNS)) >> "$BENCH_DIR/summary.txt"
+}
+
+rm -f "$BENCH_DIR/summary.txt"
+bench default "$BENCH_DIR/default"
+bench optimized "$BENCH_DIR/optimized" \
+	-XX:SharedArchiveFile=application.jsa -Dspring.aot.enabled=true -Dspring.profiles.active=prod
+
+echo
+cat "$BENCH_DIR/summary.txt"
@@ -8,14 +8,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.context.annotation.ImportRuntimeHints;
 import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
+import com.egui.gabo.webflux.app.config.NativeHints;
 import com.egui.gabo.webflux.app.models.document.Category;
 import com.egui.gabo.webflux.app.models.document.Product;
 import com.egui.gabo.webflux.app.models.repository.CategorieRepository;
-import com.egui.gabo.webflux.app.models.repository.ProductRepository;
+import com.egui.gabo.webflux.app.service.PriceHistoryService;
+import com.egui.gabo.webflux.app.service.ProductService;
+import com.egui.gabo.webflux.app.service.impl.ProductQueryRouter;
 
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 /**
  * Main Spring Boot application class for Spring WebFlux with MongoDB Reactive.
@@ -24,12 +30,14 @@ import reactor.core.publisher.Flux;
  * @author Gabriel Eguiguren P.
  */
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
+@EnableScheduling
 public class SpringWebfluxApplication implements CommandLineRunner {
 
 	private static final Logger log = LoggerFactory.getLogger(SpringWebfluxApplication.class);
 
 	@Autowired
-	private ProductRepository repository;
+	private ProductQueryRouter productRouter;
 
 	@Autowired
 	private CategorieRepository categorieRepository;
@@ -37,6 +45,12 @@ public class SpringWebfluxApplication implements CommandLineRunner {
 	@Autowired
 	private ReactiveMongoTemplate mongoTemplate;
 
+	@Autowired
+	private PriceHistoryService priceHistoryService;
+
+	@Autowired
+	private ProductService productService;
+
 	/**
 	 * Application entry point.
 	 * 
@@ -52,15 +66,20 @@ public class SpringWebfluxApplication implements CommandLineRunner {
 	 */
 	@Override
 	public void run(String... args) throws Exception {
-		// Clear existing test data
-		mongoTemplate.dropCollection("products").subscribe();
-		mongoTemplate.dropCollection("categories").subscribe();
+		// Clear existing test data, before seeding so the drops cannot race the
+		// counters and price history written by ProductService.save
+		Mono<Void> clear = Flux.fromIterable(productRouter.collections())
+				.concatWithValues("categories", "category_counts", "price_history")
+				.flatMap(mongoTemplate::dropCollection)
+				.thenMany(productRouter.ensureIndexes())
+				.then(priceHistoryService.ensureIndexes())
+				.then();
 
 		// Insert test products for development environment
 		Category cat1 = new Category("Electronic");
 		Category cat2 = new Category("Computers");
 
-		Flux.just(cat1, cat2)
+		clear.thenMany(Flux.just(cat1, cat2))
 				.flatMap(categorieRepository::save)
 				.thenMany( // execute a new Flux inmmediatly after
 						Flux.just(new Product("TV LG 4k 52in", 500.99, cat1),
@@ -73,7 +92,8 @@ public class SpringWebfluxApplication implements CommandLineRunner {
 								new Product("Laptop Mac Book Pro", 1600.99, cat2))
 								.flatMap(product -> {
 									product.setCreateAt(new Date());
-									return repository.save(product);
+									// records the first price and counts the category
+									return productService.save(product);
 								}))
 				.subscribe(product -> log.info("Inserted: {}",
 						product.getName() + " categorie: " + product.getCategory().getName()));
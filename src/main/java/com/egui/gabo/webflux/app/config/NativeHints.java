@@ -0,0 +1,30 @@
+package com.egui.gabo.webflux.app.config;
+
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+import com.egui.gabo.webflux.app.models.document.Category;
+import com.egui.gabo.webflux.app.models.document.CategoryCount;
+import com.egui.gabo.webflux.app.models.document.PriceHistory;
+import com.egui.gabo.webflux.app.models.document.PricePoint;
+import com.egui.gabo.webflux.app.models.document.Product;
+
+/**
+ * Reflection hints for the GraalVM native image. Documents are mapped by
+ * Spring Data and read by Thymeleaf/Jackson through reflection.
+ */
+public class NativeHints implements RuntimeHintsRegistrar {
+
+	@Override
+	public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+		for (Class<?> type : new Class<?>[] { Product.class, Category.class, CategoryCount.class,
+				PriceHistory.class, PricePoint.class }) {
+			hints.reflection().registerType(type,
+					MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+					MemberCategory.INVOKE_PUBLIC_METHODS,
+					MemberCategory.DECLARED_FIELDS);
+		}
+	}
+
+}
@@ -0,0 +1,41 @@
+package com.egui.gabo.webflux.app.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Scheduler used to run blocking file system calls off the Netty event loop.
+ * 
+ * config.upload.scheduler=dedicated creates an isolated bounded-elastic pool,
+ * config.upload.scheduler=shared reuses Schedulers.boundedElastic(), which runs
+ * on virtual threads on JDK 21+ when started with
+ * -Dreactor.schedulers.defaultBoundedElasticOnVirtualThreads=true
+ */
+@Configuration
+public class StorageConfig {
+
+	/**
+	 * Scheduler for the PictureStore blocking calls.
+	 * 
+	 * @param type         dedicated or shared
+	 * @param threadCap    max threads of the dedicated pool
+	 * @param queuedTaskCap max queued tasks of the dedicated pool
+	 * @return the scheduler
+	 */
+	@Bean(destroyMethod = "dispose")
+	public Scheduler storageScheduler(@Value("${config.upload.scheduler:dedicated}") String type,
+			@Value("${config.upload.scheduler.thread-cap:10}") int threadCap,
+			@Value("${config.upload.scheduler.queued-task-cap:1000}") int queuedTaskCap) {
+
+		if ("shared".equals(type)) {
+			// cached by Reactor, dispose() is a no-op
+			return Schedulers.boundedElastic();
+		}
+		return Schedulers.newBoundedElastic(threadCap, queuedTaskCap, "picture-store");
+	}
+
+}
@@ -0,0 +1,61 @@
+package com.egui.gabo.webflux.app.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.egui.gabo.webflux.app.models.document.Category;
+import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.service.ProductService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * REST controller for category API endpoints.
+ */
+@RestController
+@RequestMapping("/api/categories")
+public class CategoryRestController {
+
+	@Autowired
+	private ProductService productService;
+
+	/**
+	 * Get all categories with their product count.
+	 * Counts come from the denormalized counters, not from a products scan.
+	 * 
+	 * @return a Flux of all categories
+	 */
+	@GetMapping
+	public Flux<Category> listarCategorias() {
+		return productService.findAllCategoriesWithCounts();
+	}
+
+	/**
+	 * Check whether a category has products.
+	 * Reads the category counter, no products scan.
+	 * 
+	 * @param id Category ID
+	 * @return a Mono with true if the category has products
+	 */
+	@GetMapping("/{id}/has-products")
+	public Mono<Boolean> tieneProductos(@PathVariable String id) {
+		return productService.categoryHasProducts(id);
+	}
+
+	/**
+	 * Get the products of a category.
+	 * Hits a single partition when products are sharded by category.
+	 * 
+	 * @param id Category ID
+	 * @return a Flux of the products of the category
+	 */
+	@GetMapping("/{id}/products")
+	public Flux<Product> listarProductos(@PathVariable String id) {
+		return productService.findByCategory(id);
+	}
+
+}
@@ -1,10 +1,5 @@
 package com.egui.gabo.webflux.app.controller;
 
-import java.io.File;
-import java.net.MalformedURLException;
-
-import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Date;
 import java.util.UUID;
@@ -12,9 +7,7 @@ import java.util.UUID;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.codec.multipart.FilePart;
@@ -32,6 +25,7 @@ import org.thymeleaf.spring6.context.webflux.ReactiveDataDriverContextVariable;
 
 import com.egui.gabo.webflux.app.models.document.Category;
 import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.service.PictureStore;
 import com.egui.gabo.webflux.app.service.ProductService;
 
 import jakarta.validation.Valid;
@@ -57,20 +51,19 @@ public class ProductController {
 	/**
 	 * Populates the "categories" model attribute for all views.
 	 * 
-	 * @return a Flux of all available categories
+	 * @return a Flux of all available categories with their product count
 	 */
 	@ModelAttribute("categories")
 	public Flux<Category> getCategories() {
-		return productService.findAllCategories();
+		return productService.findAllCategoriesWithCounts();
 	}
 
-	// loads from application.properties
-	@Value("${config.upload.path}")
-	String uploadDirectory;
-
 	@Autowired
 	private ProductService productService;
 
+	@Autowired
+	private PictureStore pictureStore;
+
 	/**
 	 * Standard product listing with uppercase names. Uses default Thymeleaf
 	 * subscription to Flux.
@@ -165,20 +158,18 @@ public class ProductController {
 	 * Serves uploaded product images.
 	 * 
 	 * @param picName the filename of the picture
-	 * @return a Mono containing the resource response
-	 * @throws MalformedURLException if the path is invalid
+	 * @return a Mono containing the resource response, 404 if not found or 400 if
+	 *         the name points outside the upload directory
 	 */
 	@GetMapping("/uploads/img/{picName:.+}")
-	public Mono<ResponseEntity<Resource>> displayPicture(@PathVariable String picName) throws MalformedURLException {
-
-		Path absolutePath = Paths.get(uploadDirectory).resolve(picName).toAbsolutePath();
-
-		Resource image = new UrlResource(absolutePath.toUri());
+	public Mono<ResponseEntity<Resource>> displayPicture(@PathVariable String picName) {
 
-		return Mono.just(
-				ResponseEntity.ok()
+		return pictureStore.load(picName)
+				.map(image -> ResponseEntity.ok()
 						.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + image.getFilename() + "\"")
-						.body(image));
+						.body(image))
+				.defaultIfEmpty(ResponseEntity.notFound().build())
+				.onErrorResume(IllegalArgumentException.class, ex -> Mono.just(ResponseEntity.badRequest().build()));
 
 	}
 
@@ -227,7 +218,7 @@ public class ProductController {
 				log.info(p.getName());
 			}).flatMap(p -> {
 				if (!file.filename().isEmpty()) {
-					return file.transferTo(new File(uploadDirectory + p.getPicture()));
+					return pictureStore.save(p.getPicture(), file);
 				}
 				return Mono.empty();
 			}).thenReturn("redirect:/list?success=Producto+guardado");
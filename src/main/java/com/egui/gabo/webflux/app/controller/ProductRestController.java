@@ -1,14 +1,20 @@
 package com.egui.gabo.webflux.app.controller;
 
+import java.util.Date;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import com.egui.gabo.webflux.app.models.document.PricePoint;
 import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.service.PriceHistoryService;
 import com.egui.gabo.webflux.app.service.ProductService;
 
 import reactor.core.publisher.Flux;
@@ -29,6 +35,9 @@ public class ProductRestController {
 	@Autowired
 	private ProductService productService;
 
+	@Autowired
+	private PriceHistoryService priceHistoryService;
+
 	/**
 	 * Get all products with names converted to uppercase.
 	 * Returns a Flux stream of products.
@@ -63,4 +72,23 @@ public class ProductRestController {
 		return founded;
 	}
 
+	/**
+	 * Stream the price history of a product.
+	 * Reads one bucket document per time window, not one per change.
+	 * 
+	 * @param id   Product ID
+	 * @param from start of the range (ISO date-time), defaults to the epoch
+	 * @param to   end of the range (ISO date-time), defaults to now
+	 * @return Flux of price changes, oldest first
+	 */
+	@GetMapping("/{id}/prices")
+	public Flux<PricePoint> listarPrecios(@PathVariable String id,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to) {
+
+		return priceHistoryService.findPrices(id,
+				from != null ? from : new Date(0),
+				to != null ? to : new Date());
+	}
+
 }
@@ -1,6 +1,7 @@
 package com.egui.gabo.webflux.app.models.document;
 
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import jakarta.validation.constraints.NotEmpty;
@@ -20,6 +21,10 @@ public class Category {
 	@NotEmpty
 	private String name;
 
+	// filled from category_counts, never stored with the category
+	@Transient
+	private Long productCount;
+
 	public String getId() {
 		return id;
 	}
@@ -36,6 +41,14 @@ public class Category {
 		this.name = name;
 	}
 
+	public Long getProductCount() {
+		return productCount;
+	}
+
+	public void setProductCount(Long productCount) {
+		this.productCount = productCount;
+	}
+
 	/**
 	 * Constructor with name.
 	 * 
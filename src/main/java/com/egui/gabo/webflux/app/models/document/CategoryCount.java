@@ -0,0 +1,51 @@
+package com.egui.gabo.webflux.app.models.document;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Denormalized number of products of a category. Kept in a side collection so
+ * the copies of {@link Category} embedded in products never carry a stale
+ * count.
+ */
+@Document(collection = "category_counts")
+public class CategoryCount {
+
+	// same as the category ID
+	@Id
+	private String id;
+
+	private long count;
+
+	/** Default constructor. */
+	public CategoryCount() {
+	}
+
+	/**
+	 * Constructor with category ID and count.
+	 * 
+	 * @param id    the category ID
+	 * @param count number of products in the category
+	 */
+	public CategoryCount(String id, long count) {
+		this.id = id;
+		this.count = count;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public long getCount() {
+		return count;
+	}
+
+	public void setCount(long count) {
+		this.count = count;
+	}
+
+}
@@ -0,0 +1,78 @@
+package com.egui.gabo.webflux.app.models.document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+/**
+ * Time bucket of price changes for a single product. One document holds up to
+ * config.price-history.bucket-capacity changes of a product within a bucket
+ * window (a full bucket rolls over to a new document for the same window), so a
+ * range query reads few documents instead of one per change.
+ * 
+ * Indexed on {productId, bucketStart} by PriceHistoryService.ensureIndexes()
+ */
+@Document(collection = "price_history")
+public class PriceHistory {
+
+	@Id
+	private String id;
+
+	private String productId;
+
+	// start of the time window covered by this bucket
+	private Date bucketStart;
+
+	// number of samples, caps the bucket
+	private int count;
+
+	private List<PricePoint> samples = new ArrayList<>();
+
+	/** Default constructor. */
+	public PriceHistory() {
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	public void setId(String id) {
+		this.id = id;
+	}
+
+	public String getProductId() {
+		return productId;
+	}
+
+	public void setProductId(String productId) {
+		this.productId = productId;
+	}
+
+	public Date getBucketStart() {
+		return bucketStart;
+	}
+
+	public void setBucketStart(Date bucketStart) {
+		this.bucketStart = bucketStart;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public void setCount(int count) {
+		this.count = count;
+	}
+
+	public List<PricePoint> getSamples() {
+		return samples;
+	}
+
+	public void setSamples(List<PricePoint> samples) {
+		this.samples = samples;
+	}
+
+}
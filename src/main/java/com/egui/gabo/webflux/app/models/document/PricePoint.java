@@ -0,0 +1,45 @@
+package com.egui.gabo.webflux.app.models.document;
+
+import java.util.Date;
+
+/**
+ * A single price change event, embedded inside a {@link PriceHistory} bucket.
+ */
+public class PricePoint {
+
+	private Double price;
+
+	private Date date;
+
+	/** Default constructor. */
+	public PricePoint() {
+	}
+
+	/**
+	 * Constructor with price and change date.
+	 * 
+	 * @param price the new product price
+	 * @param date  when the price was changed
+	 */
+	public PricePoint(Double price, Date date) {
+		this.price = price;
+		this.date = date;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public Date getDate() {
+		return date;
+	}
+
+	public void setDate(Date date) {
+		this.date = date;
+	}
+
+}
@@ -14,6 +14,10 @@ import jakarta.validation.constraints.NotNull;
  * Product entity/document for MongoDB.
  * Represents a product with name, price, and creation timestamp.
  * 
+ * The shard key is not fixed in the mapping: it follows config.sharding.key
+ * (see ShardKeyStrategy) and ProductQueryRouter picks the partition of every
+ * read and write.
+ * 
  * @author Gabriel Eguiguren P.
  */
 @Document(collection = "products")
@@ -0,0 +1,12 @@
+package com.egui.gabo.webflux.app.models.repository;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+
+import com.egui.gabo.webflux.app.models.document.CategoryCount;
+
+/**
+ * Reactive MongoDB repository for the per-category product counters.
+ */
+public interface CategoryCountRepository extends ReactiveMongoRepository<CategoryCount, String> {
+
+}
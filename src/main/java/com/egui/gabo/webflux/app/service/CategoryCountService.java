@@ -0,0 +1,42 @@
+package com.egui.gabo.webflux.app.service;
+
+import java.util.Map;
+
+import reactor.core.publisher.Mono;
+
+public interface CategoryCountService {
+
+	/**
+	 * Move one product from a category to another. Either ID may be null (new or
+	 * deleted product, product without category).
+	 * 
+	 * @param fromCategoryId category losing the product
+	 * @param toCategoryId   category gaining the product
+	 * @return a Mono<Void> that completes when the counters are updated
+	 */
+	public Mono<Void> move(String fromCategoryId, String toCategoryId);
+
+	/**
+	 * Read all the counters.
+	 * 
+	 * @return a Mono with the product count by category ID
+	 */
+	public Mono<Map<String, Long>> findCounts();
+
+	/**
+	 * Check whether a category has products, reading its counter instead of
+	 * scanning the products.
+	 * 
+	 * @param categoryId the category ID
+	 * @return a Mono with true if the category has at least one product
+	 */
+	public Mono<Boolean> hasProducts(String categoryId);
+
+	/**
+	 * Recalculate every counter from the products collection.
+	 * 
+	 * @return a Mono<Void> that completes when the counters are rewritten
+	 */
+	public Mono<Void> reconcile();
+
+}
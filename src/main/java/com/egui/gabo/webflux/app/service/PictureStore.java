@@ -0,0 +1,31 @@
+package com.egui.gabo.webflux.app.service;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.codec.multipart.FilePart;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Storage for uploaded product pictures.
+ */
+public interface PictureStore {
+
+	/**
+	 * Load a stored picture.
+	 * 
+	 * @param picName the filename of the picture
+	 * @return a Mono containing the picture, empty if it does not exist, or an
+	 *         IllegalArgumentException error if the name escapes the store
+	 */
+	public Mono<Resource> load(String picName);
+
+	/**
+	 * Store an uploaded picture.
+	 * 
+	 * @param picName the filename to store the picture as
+	 * @param file    the uploaded file part
+	 * @return a Mono<Void> that completes when the picture is stored
+	 */
+	public Mono<Void> save(String picName, FilePart file);
+
+}
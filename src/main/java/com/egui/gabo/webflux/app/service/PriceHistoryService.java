@@ -0,0 +1,40 @@
+package com.egui.gabo.webflux.app.service;
+
+import java.util.Date;
+
+import com.egui.gabo.webflux.app.models.document.PricePoint;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+public interface PriceHistoryService {
+
+	/**
+	 * Append a price change event to the bucket of the product that covers the
+	 * given date.
+	 * 
+	 * @param productId the product ID
+	 * @param price     the new price
+	 * @param date      when the price changed
+	 * @return a Mono<Void> that completes when the event is stored
+	 */
+	public Mono<Void> record(String productId, Double price, Date date);
+
+	/**
+	 * Stream the price changes of a product between two dates, oldest first.
+	 * 
+	 * @param productId the product ID
+	 * @param from      inclusive lower bound
+	 * @param to        inclusive upper bound
+	 * @return a Flux of price points in the range
+	 */
+	public Flux<PricePoint> findPrices(String productId, Date from, Date to);
+
+	/**
+	 * Create the indexes used by the bucket upsert and the range queries.
+	 * 
+	 * @return a Mono with the name of the index
+	 */
+	public Mono<String> ensureIndexes();
+
+}
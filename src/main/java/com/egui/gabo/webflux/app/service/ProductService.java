@@ -30,6 +30,15 @@ public interface ProductService {
 	 */
 	public Mono<Product> findById(String id);
 
+	/**
+	 * Find the products of a category. Hits a single partition when the shard
+	 * key is the category.
+	 * 
+	 * @param categoryId the category ID
+	 * @return a Flux of the products of the category
+	 */
+	public Flux<Product> findByCategory(String categoryId);
+
 	/**
 	 * Save a product.
 	 * 
@@ -54,6 +63,23 @@ public interface ProductService {
 	 */
 	public Flux<Category> findAllCategories();
 
+	/**
+	 * Retrieve all categories with their product count, read from the
+	 * denormalized counters instead of scanning products.
+	 * 
+	 * @return a Flux of all categories with productCount set
+	 */
+	public Flux<Category> findAllCategoriesWithCounts();
+
+	/**
+	 * Check whether a category has products. Served from the denormalized
+	 * counters, without scanning products.
+	 * 
+	 * @param categoryId the category ID
+	 * @return a Mono with true if the category has at least one product
+	 */
+	public Mono<Boolean> categoryHasProducts(String categoryId);
+
 	/**
 	 * Find a category by its ID.
 	 * 
@@ -0,0 +1,85 @@
+package com.egui.gabo.webflux.app.service;
+
+import org.bson.Document;
+
+import com.egui.gabo.webflux.app.models.document.Product;
+
+/**
+ * How products are spread over partitions (shards). The routing value is
+ * hashed to pick the partition, like a hashed Mongo shard key.
+ */
+public enum ShardKeyStrategy {
+
+	/**
+	 * Hashed category.id + id: all the products of a category live in the same
+	 * partition, so queries by category hit a single one.
+	 */
+	CATEGORY {
+		@Override
+		public String routingValue(String categoryId, String id) {
+			return categoryId != null ? categoryId : "";
+		}
+
+		@Override
+		public Document shardKey() {
+			return new Document("category._id", "hashed").append("_id", 1);
+		}
+	},
+
+	/**
+	 * Hashed id: even spread, lookups by id hit a single partition.
+	 */
+	ID {
+		@Override
+		public String routingValue(String categoryId, String id) {
+			return id;
+		}
+
+		@Override
+		public Document shardKey() {
+			return new Document("_id", "hashed");
+		}
+	};
+
+	/**
+	 * Value hashed to choose the partition of a product.
+	 * 
+	 * @param categoryId the product category ID, may be null
+	 * @param id         the product ID
+	 * @return the routing value
+	 */
+	public abstract String routingValue(String categoryId, String id);
+
+	/**
+	 * Shard key of the products collection, as used by sh.shardCollection and
+	 * for the shard key index of each partition.
+	 * 
+	 * @return the shard key fields
+	 */
+	public abstract Document shardKey();
+
+	/**
+	 * Partition of a product, stable across restarts (String.hashCode is
+	 * specified).
+	 * 
+	 * @param p          the product
+	 * @param partitions number of partitions
+	 * @return a partition index between 0 and partitions - 1
+	 */
+	public int partitionOf(Product p, int partitions) {
+		String categoryId = p.getCategory() != null ? p.getCategory().getId() : null;
+		return partitionOf(routingValue(categoryId, p.getId()), partitions);
+	}
+
+	/**
+	 * Partition of a routing value.
+	 * 
+	 * @param routingValue the value returned by routingValue
+	 * @param partitions   number of partitions
+	 * @return a partition index between 0 and partitions - 1
+	 */
+	public static int partitionOf(String routingValue, int partitions) {
+		return Math.floorMod(routingValue.hashCode(), partitions);
+	}
+
+}
@@ -0,0 +1,120 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.egui.gabo.webflux.app.models.document.CategoryCount;
+import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.models.repository.CategorieRepository;
+import com.egui.gabo.webflux.app.models.repository.CategoryCountRepository;
+import com.egui.gabo.webflux.app.service.CategoryCountService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of CategoryCountService. Counters are updated with $inc on
+ * every product save/delete and periodically reconciled with an aggregation.
+ * 
+ * Never lazy, otherwise the scheduled reconciliation would not be registered
+ * with spring.main.lazy-initialization=true
+ */
+@Lazy(false)
+@Service
+public class CategoryCountServiceImpl implements CategoryCountService {
+
+	private static final Logger log = LoggerFactory.getLogger(CategoryCountServiceImpl.class);
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Autowired
+	private CategoryCountRepository countDao;
+
+	@Autowired
+	private CategorieRepository categorieDao;
+
+	@Autowired
+	private ProductQueryRouter productRouter;
+
+	@Override
+	public Mono<Void> move(String fromCategoryId, String toCategoryId) {
+		if (Objects.equals(fromCategoryId, toCategoryId)) {
+			return Mono.empty();
+		}
+		return increment(fromCategoryId, -1).then(increment(toCategoryId, 1));
+	}
+
+	@Override
+	public Mono<Map<String, Long>> findCounts() {
+		return countDao.findAll().collectMap(CategoryCount::getId, CategoryCount::getCount);
+	}
+
+	@Override
+	public Mono<Boolean> hasProducts(String categoryId) {
+		return countDao.findById(categoryId)
+				.map(counter -> counter.getCount() > 0)
+				.defaultIfEmpty(false);
+	}
+
+	/**
+	 * Counts the distinct products of every category with a $group on category.id
+	 * over all product partitions, and overwrites the counters. Categories without products
+	 * are reset to zero.
+	 */
+	@Override
+	@Scheduled(fixedDelayString = "${config.category-counts.reconcile-interval:PT10M}",
+			initialDelayString = "${config.category-counts.reconcile-interval:PT10M}")
+	public Mono<Void> reconcile() {
+
+		// one $group per partition; a product left in two partitions by a failed
+		// move is counted once
+		Mono<Map<String, Long>> counts = Flux.fromIterable(productRouter.collections())
+				.flatMap(collection -> mongoTemplate.aggregate(
+						newAggregation(Product.class, group("category.id").addToSet("id").as("ids")),
+						collection, Document.class))
+				.filter(doc -> doc.get("_id") != null)
+				.<Map<String, String>>collect(HashMap::new, (categoryOf, doc) -> doc.getList("ids", Object.class)
+						.forEach(id -> categoryOf.putIfAbsent(id.toString(), doc.get("_id").toString())))
+				.map(categoryOf -> categoryOf.values().stream()
+						.collect(Collectors.groupingBy(Function.identity(), Collectors.counting())));
+
+		return counts.flatMapMany(byCategory -> categorieDao.findAll()
+				.map(cat -> new CategoryCount(cat.getId(), byCategory.getOrDefault(cat.getId(), 0L))))
+				.collectList()
+				.flatMapMany(countDao::saveAll)
+				.count()
+				.doOnNext(total -> log.info("Reconciled product counts of {} categories", total))
+				.then();
+	}
+
+	/**
+	 * Atomic $inc of a counter, creating it when missing.
+	 */
+	private Mono<Void> increment(String categoryId, long delta) {
+		if (categoryId == null) {
+			return Mono.empty();
+		}
+		return mongoTemplate.upsert(new Query(Criteria.where("_id").is(categoryId)),
+				new Update().inc("count", delta), CategoryCount.class).then();
+	}
+
+}
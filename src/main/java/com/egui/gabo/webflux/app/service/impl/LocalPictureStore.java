@@ -0,0 +1,69 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.UrlResource;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Service;
+
+import com.egui.gabo.webflux.app.service.PictureStore;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * PictureStore on the local file system. Every blocking call runs on the
+ * storage scheduler, never on the Netty event loop.
+ */
+@Service
+public class LocalPictureStore implements PictureStore {
+
+	private final Path root;
+
+	private final Scheduler scheduler;
+
+	@Autowired
+	public LocalPictureStore(@Value("${config.upload.path}") String uploadDirectory, Scheduler storageScheduler) {
+		this.root = Paths.get(uploadDirectory).toAbsolutePath().normalize();
+		this.scheduler = storageScheduler;
+	}
+
+	@Override
+	public Mono<Resource> load(String picName) {
+		return Mono.fromCallable(() -> {
+			Resource image = new UrlResource(resolve(picName).toUri());
+			return image.exists() ? image : null; // null -> empty Mono
+		}).subscribeOn(scheduler);
+	}
+
+	@Override
+	public Mono<Void> save(String picName, FilePart file) {
+		return Mono.defer(() -> {
+			Path target = resolve(picName);
+			try {
+				Files.createDirectories(target.getParent());
+			} catch (Exception e) {
+				return Mono.error(e);
+			}
+			return file.transferTo(target); // opens the file channel on subscribe
+		}).subscribeOn(scheduler);
+	}
+
+	/**
+	 * Resolves a picture inside the upload directory, rejecting paths that escape
+	 * it.
+	 */
+	private Path resolve(String picName) {
+		Path path = root.resolve(picName).normalize();
+		if (!path.startsWith(root)) {
+			throw new IllegalArgumentException("Invalid picture name: " + picName);
+		}
+		return path;
+	}
+
+}
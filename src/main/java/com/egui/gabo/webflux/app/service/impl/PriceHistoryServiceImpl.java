@@ -0,0 +1,86 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import java.time.Duration;
+import java.util.Date;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import com.egui.gabo.webflux.app.models.document.PriceHistory;
+import com.egui.gabo.webflux.app.models.document.PricePoint;
+import com.egui.gabo.webflux.app.service.PriceHistoryService;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Implementation of PriceHistoryService storing price changes in time buckets
+ * (capped documents per product per bucket window).
+ */
+@Service
+public class PriceHistoryServiceImpl implements PriceHistoryService {
+
+	@Autowired
+	private ReactiveMongoTemplate mongoTemplate;
+
+	// size of each bucket window, loads from application.properties
+	@Value("${config.price-history.bucket-size:1d}")
+	private Duration bucketSize;
+
+	// max samples of a bucket document before rolling over to a new one
+	@Value("${config.price-history.bucket-capacity:200}")
+	private int bucketCapacity;
+
+	@Override
+	public Mono<Void> record(String productId, Double price, Date date) {
+
+		Query query = new Query(Criteria.where("productId").is(productId)
+				.and("bucketStart").is(bucketStart(date))
+				.and("count").lt(bucketCapacity));
+
+		// upsert: creates the bucket on the first change of the window, or when
+		// the current one is full
+		Update update = new Update()
+				.push("samples", new PricePoint(price, date))
+				.inc("count", 1);
+
+		return mongoTemplate.upsert(query, update, PriceHistory.class).then();
+	}
+
+	@Override
+	public Flux<PricePoint> findPrices(String productId, Date from, Date to) {
+
+		Query query = new Query(Criteria.where("productId").is(productId)
+				.and("bucketStart").gte(bucketStart(from)).lte(to))
+				.with(Sort.by("bucketStart", "id"));
+
+		return mongoTemplate.find(query, PriceHistory.class)
+				.flatMapIterable(PriceHistory::getSamples)
+				.filter(point -> !point.getDate().before(from) && !point.getDate().after(to));
+	}
+
+	@Override
+	public Mono<String> ensureIndexes() {
+		return mongoTemplate.indexOps(PriceHistory.class)
+				.createIndex(new Index()
+						.on("productId", Sort.Direction.ASC)
+						.on("bucketStart", Sort.Direction.ASC)
+						.named("product_bucket_idx"));
+	}
+
+	/**
+	 * Truncates a date to the start of the bucket window that contains it.
+	 */
+	Date bucketStart(Date date) {
+		long size = bucketSize.toMillis();
+		return new Date(Math.floorDiv(date.getTime(), size) * size);
+	}
+
+}
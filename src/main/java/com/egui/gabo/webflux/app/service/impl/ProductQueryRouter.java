@@ -0,0 +1,193 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.CompoundIndexDefinition;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.service.ShardKeyStrategy;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes product queries to partitions. Queries whose shard key is known hit a
+ * single partition; the others are sent to every partition in parallel and the
+ * results merge-sorted by id (scatter-gather).
+ * 
+ * With config.sharding.partitions=1 everything goes to the "products"
+ * collection. With more, each partition is a local "products_N" collection
+ * standing in for a shard.
+ */
+@Component
+public class ProductQueryRouter {
+
+	static final String COLLECTION = "products";
+
+	private static final Comparator<Product> BY_ID = Comparator.comparing(Product::getId);
+
+	private final ReactiveMongoTemplate mongoTemplate;
+
+	private final ShardKeyStrategy strategy;
+
+	private final List<String> collections;
+
+	@Autowired
+	public ProductQueryRouter(ReactiveMongoTemplate mongoTemplate,
+			@Value("${config.sharding.key:category}") ShardKeyStrategy strategy,
+			@Value("${config.sharding.partitions:1}") int partitions) {
+		if (partitions < 1) {
+			throw new IllegalArgumentException("Invalid number of partitions: " + partitions);
+		}
+		this.mongoTemplate = mongoTemplate;
+		this.strategy = strategy;
+		this.collections = partitions == 1 ? List.of(COLLECTION)
+				: IntStream.range(0, partitions).mapToObj(i -> COLLECTION + "_" + i).toList();
+	}
+
+	/**
+	 * @return the collections of all partitions
+	 */
+	public List<String> collections() {
+		return collections;
+	}
+
+	/**
+	 * Save a product in its partition and return the version it replaced, read by
+	 * the same atomic findAndReplace. A product whose shard key changed is saved in
+	 * its new partition first and then removed from the old one, so a failure
+	 * leaves a duplicate, never a lost product.
+	 * 
+	 * @param p the product to save
+	 * @return a Mono with the previous version, or an empty Product for new
+	 *         products
+	 */
+	public Mono<Product> replace(Product p) {
+		if (p.getId() == null) {
+			// the id may be part of the shard key, assign it before routing
+			p.setId(new ObjectId().toHexString());
+			return mongoTemplate.insert(p, collectionOf(p)).thenReturn(new Product());
+		}
+		String target = collectionOf(p);
+		Query byId = new Query(Criteria.where("id").is(p.getId()));
+
+		return mongoTemplate.findAndReplace(byId, p, FindAndReplaceOptions.options().upsert(), target)
+				// not in the target partition before: take it out of the old one
+				.switchIfEmpty(Mono.defer(() -> Flux.merge(collections.stream()
+						.filter(collection -> !collection.equals(target))
+						.map(collection -> mongoTemplate.findAndRemove(byId, Product.class, collection))
+						.toList())
+						.next()))
+				.defaultIfEmpty(new Product());
+	}
+
+	/**
+	 * Delete a product by id from every partition, so a stale category or a
+	 * duplicate left by a failed move does not keep a copy alive.
+	 * 
+	 * @param p the product to delete
+	 * @return a Mono with the removed product, empty if nothing was removed
+	 */
+	public Mono<Product> delete(Product p) {
+		Query byId = new Query(Criteria.where("id").is(p.getId()));
+
+		return Flux.merge(collections.stream()
+				.map(collection -> mongoTemplate.findAndRemove(byId, Product.class, collection))
+				.toList())
+				.reduce((removed, duplicate) -> removed);
+	}
+
+	/**
+	 * Find a product by ID. Single partition with the ID strategy, scatter-gather
+	 * otherwise.
+	 * 
+	 * @param id the product ID
+	 * @return a Mono containing the product if found
+	 */
+	public Mono<Product> findById(String id) {
+		if (strategy == ShardKeyStrategy.ID) {
+			return mongoTemplate.findById(id, Product.class, partition(strategy.routingValue(null, id)));
+		}
+		return Flux.merge(collections.stream()
+				.map(collection -> mongoTemplate.findById(id, Product.class, collection))
+				.toList())
+				.next();
+	}
+
+	/**
+	 * Find all products, ordered by id.
+	 * 
+	 * @return a Flux of all products
+	 */
+	public Flux<Product> findAll() {
+		return scatter(new Query());
+	}
+
+	/**
+	 * Find the products of a category, ordered by id. Single partition with the
+	 * CATEGORY strategy, scatter-gather otherwise.
+	 * 
+	 * @param categoryId the category ID
+	 * @return a Flux of the products of the category
+	 */
+	public Flux<Product> findByCategory(String categoryId) {
+		Query query = new Query(Criteria.where("category.id").is(categoryId));
+
+		if (strategy == ShardKeyStrategy.CATEGORY) {
+			return mongoTemplate.find(query.with(Sort.by("id")), Product.class,
+					partition(strategy.routingValue(categoryId, null)));
+		}
+		return scatter(query);
+	}
+
+	/**
+	 * Create the shard key index on every partition.
+	 * 
+	 * @return a Flux with the names of the indexes
+	 */
+	public Flux<String> ensureIndexes() {
+		return Flux.fromIterable(collections)
+				.flatMap(collection -> mongoTemplate.indexOps(collection)
+						.createIndex(new CompoundIndexDefinition(strategy.shardKey()).named("shard_key_idx")));
+	}
+
+	/**
+	 * Runs the query on every partition in parallel and merges the results, each
+	 * partition sorted by id, into one Flux sorted by id. A duplicate left in two
+	 * partitions by a failed move is returned once.
+	 */
+	private Flux<Product> scatter(Query query) {
+		Query sorted = query.with(Sort.by("id"));
+
+		if (collections.size() == 1) {
+			return mongoTemplate.find(sorted, Product.class, collections.get(0));
+		}
+
+		@SuppressWarnings("unchecked")
+		Flux<Product>[] partitions = collections.stream()
+				.map(collection -> mongoTemplate.find(Query.of(sorted), Product.class, collection))
+				.toArray(Flux[]::new);
+
+		return Flux.mergeComparing(BY_ID, partitions).distinctUntilChanged(Product::getId);
+	}
+
+	private String collectionOf(Product p) {
+		return collections.get(strategy.partitionOf(p, collections.size()));
+	}
+
+	private String partition(String routingValue) {
+		return collections.get(ShardKeyStrategy.partitionOf(routingValue, collections.size()));
+	}
+
+}
@@ -1,37 +1,49 @@
 package com.egui.gabo.webflux.app.service.impl;
 
+import java.util.Date;
+import java.util.Objects;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.egui.gabo.webflux.app.models.document.Category;
 import com.egui.gabo.webflux.app.models.document.Product;
 import com.egui.gabo.webflux.app.models.repository.CategorieRepository;
-import com.egui.gabo.webflux.app.models.repository.ProductRepository;
+import com.egui.gabo.webflux.app.service.CategoryCountService;
+import com.egui.gabo.webflux.app.service.PriceHistoryService;
 import com.egui.gabo.webflux.app.service.ProductService;
 
 import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 
 /**
- * Implementation of ProductService using ReactiveMongoRepository.
+ * Implementation of ProductService. Products go through the
+ * ProductQueryRouter (partition aware), categories through
+ * ReactiveMongoRepository.
  */
 @Service
 public class ProductServiceImpl implements ProductService {
 
 	@Autowired
-	private ProductRepository productDao;
+	private ProductQueryRouter productRouter;
 
 	@Autowired
 	private CategorieRepository categorieDao;
 
+	@Autowired
+	private PriceHistoryService priceHistoryService;
+
+	@Autowired
+	private CategoryCountService categoryCountService;
+
 	@Override
 	public Flux<Product> findAll() {
-		return productDao.findAll();
+		return productRouter.findAll();
 	}
 
 	@Override
 	public Flux<Product> findAllNameUppercase() {
-		return productDao.findAll()
+		return productRouter.findAll()
 				.map(product -> {
 					product.setName(product.getName().toUpperCase());
 					return product;
@@ -40,17 +52,33 @@ public class ProductServiceImpl implements ProductService {
 
 	@Override
 	public Mono<Product> findById(String id) {
-		return productDao.findById(id);
+		return productRouter.findById(id);
+	}
+
+	@Override
+	public Flux<Product> findByCategory(String categoryId) {
+		return productRouter.findByCategory(categoryId);
 	}
 
 	@Override
 	public Mono<Product> save(Product p) {
-		return productDao.save(p);
+
+		// version replaced by this save, read in the same atomic write
+		return productRouter.replace(p)
+				.flatMap(prev -> {
+					Mono<Void> history = Objects.equals(prev.getPrice(), p.getPrice()) ? Mono.empty()
+							: priceHistoryService.record(p.getId(), p.getPrice(), new Date());
+
+					return history
+							.then(categoryCountService.move(categoryId(prev), categoryId(p)))
+							.thenReturn(p);
+				});
 	}
 
 	@Override
 	public Mono<Void> delete(Product p) {
-		return productDao.delete(p);
+		return productRouter.delete(p)
+				.flatMap(removed -> categoryCountService.move(categoryId(removed), null));
 	}
 
 	@Override
@@ -59,6 +87,22 @@ public class ProductServiceImpl implements ProductService {
 		return categorieDao.findAll();
 	}
 
+	@Override
+	public Flux<Category> findAllCategoriesWithCounts() {
+
+		return categoryCountService.findCounts()
+				.flatMapMany(counts -> categorieDao.findAll()
+						.map(cat -> {
+							cat.setProductCount(counts.getOrDefault(cat.getId(), 0L));
+							return cat;
+						}));
+	}
+
+	@Override
+	public Mono<Boolean> categoryHasProducts(String categoryId) {
+		return categoryCountService.hasProducts(categoryId);
+	}
+
 	@Override
 	public Mono<Category> findCategoryById(String id) {
 
@@ -71,4 +115,8 @@ public class ProductServiceImpl implements ProductService {
 		return categorieDao.save(c);
 	}
 
+	private static String categoryId(Product p) {
+		return p.getCategory() != null ? p.getCategory().getId() : null;
+	}
+
 }
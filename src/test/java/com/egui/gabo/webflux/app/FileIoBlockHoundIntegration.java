@@ -0,0 +1,22 @@
+package com.egui.gabo.webflux.app;
+
+import reactor.blockhound.BlockHound;
+import reactor.blockhound.integration.BlockHoundIntegration;
+
+/**
+ * Marks the NIO file calls used by uploads as blocking. BlockHound only knows
+ * the java.io streams by default, so opening a file channel on an event loop
+ * thread would go unnoticed.
+ */
+public class FileIoBlockHoundIntegration implements BlockHoundIntegration {
+
+	@Override
+	public void applyTo(BlockHound.Builder builder) {
+		builder.markAsBlocking("java.nio.file.Files", "createDirectories",
+				"(Ljava/nio/file/Path;[Ljava/nio/file/attribute/FileAttribute;)Ljava/nio/file/Path;");
+		builder.markAsBlocking("java.nio.channels.AsynchronousFileChannel", "open",
+				"(Ljava/nio/file/Path;Ljava/util/Set;Ljava/util/concurrent/ExecutorService;"
+						+ "[Ljava/nio/file/attribute/FileAttribute;)Ljava/nio/channels/AsynchronousFileChannel;");
+	}
+
+}
@@ -0,0 +1,168 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import com.egui.gabo.webflux.app.models.document.Category;
+import com.egui.gabo.webflux.app.models.document.CategoryCount;
+import com.egui.gabo.webflux.app.models.repository.CategorieRepository;
+import com.egui.gabo.webflux.app.models.repository.CategoryCountRepository;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class CategoryCountServiceImplTests {
+
+	@Mock
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@Mock
+	private CategoryCountRepository countDao;
+
+	@Mock
+	private CategorieRepository categorieDao;
+
+	@Mock
+	private ProductQueryRouter productRouter;
+
+	@InjectMocks
+	private CategoryCountServiceImpl service;
+
+	@Captor
+	private ArgumentCaptor<Iterable<CategoryCount>> saved;
+
+	@Test
+	void moveNewProductIncrementsTargetCategory() {
+		ArgumentCaptor<Query> query = captureUpserts();
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+		StepVerifier.create(service.move(null, "c1")).verifyComplete();
+
+		verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(CategoryCount.class));
+		assertThat(query.getValue().getQueryObject().get("_id")).isEqualTo("c1");
+		assertThat(update.getValue().getUpdateObject().get("$inc")).isEqualTo(new Document("count", 1L));
+	}
+
+	@Test
+	void moveBetweenCategoriesDecrementsOldAndIncrementsNew() {
+		ArgumentCaptor<Query> query = captureUpserts();
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+		StepVerifier.create(service.move("c1", "c2")).verifyComplete();
+
+		verify(mongoTemplate, times(2)).upsert(query.capture(), update.capture(), eq(CategoryCount.class));
+		assertThat(query.getAllValues()).extracting(q -> q.getQueryObject().get("_id")).containsExactly("c1", "c2");
+		assertThat(update.getAllValues()).extracting(u -> u.getUpdateObject().get("$inc"))
+				.containsExactly(new Document("count", -1L), new Document("count", 1L));
+	}
+
+	@Test
+	void moveDeletedProductDecrementsOldCategory() {
+		ArgumentCaptor<Query> query = captureUpserts();
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+
+		StepVerifier.create(service.move("c1", null)).verifyComplete();
+
+		verify(mongoTemplate).upsert(query.capture(), update.capture(), eq(CategoryCount.class));
+		assertThat(query.getValue().getQueryObject().get("_id")).isEqualTo("c1");
+		assertThat(update.getValue().getUpdateObject().get("$inc")).isEqualTo(new Document("count", -1L));
+	}
+
+	@Test
+	void moveWithinSameCategoryOrWithoutCategoryDoesNothing() {
+		StepVerifier.create(service.move("c1", "c1")).verifyComplete();
+		StepVerifier.create(service.move(null, null)).verifyComplete();
+
+		verifyNoInteractions(mongoTemplate);
+	}
+
+	@Test
+	void reconcileSumsPartitionsAndZeroFillsEmptyCategories() {
+		when(productRouter.collections()).thenReturn(List.of("products_0", "products_1"));
+		when(mongoTemplate.aggregate(any(TypedAggregation.class), eq("products_0"), eq(Document.class)))
+				.thenReturn(Flux.just(new Document("_id", "c1").append("ids", List.of("p1", "p2")),
+						new Document("_id", null).append("ids", List.of("p3"))));
+		when(mongoTemplate.aggregate(any(TypedAggregation.class), eq("products_1"), eq(Document.class)))
+				.thenReturn(Flux.just(new Document("_id", "c1").append("ids", List.of("p4")),
+						new Document("_id", "c2").append("ids", List.of("p5", "p6", "p7", "p8"))));
+		when(categorieDao.findAll()).thenReturn(Flux.just(category("c1"), category("c2"), category("c3")));
+
+		when(countDao.saveAll(anyIterable())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+		StepVerifier.create(service.reconcile()).verifyComplete();
+
+		verify(countDao).saveAll(saved.capture());
+		Map<String, Long> counts = StreamSupport.stream(saved.getValue().spliterator(), false)
+				.collect(Collectors.toMap(CategoryCount::getId, CategoryCount::getCount));
+		assertThat(counts).isEqualTo(Map.of("c1", 3L, "c2", 4L, "c3", 0L));
+	}
+
+	@Test
+	void reconcileCountsDuplicateAcrossPartitionsOnce() {
+		when(productRouter.collections()).thenReturn(List.of("products_0", "products_1"));
+		when(mongoTemplate.aggregate(any(TypedAggregation.class), eq("products_0"), eq(Document.class)))
+				.thenReturn(Flux.just(new Document("_id", "c1").append("ids", List.of("p1", "p2"))));
+		when(mongoTemplate.aggregate(any(TypedAggregation.class), eq("products_1"), eq(Document.class)))
+				.thenReturn(Flux.just(new Document("_id", "c1").append("ids", List.of("p2"))));
+		when(categorieDao.findAll()).thenReturn(Flux.just(category("c1")));
+
+		when(countDao.saveAll(anyIterable())).thenAnswer(inv -> Flux.fromIterable(inv.getArgument(0)));
+
+		StepVerifier.create(service.reconcile()).verifyComplete();
+
+		verify(countDao).saveAll(saved.capture());
+		assertThat(saved.getValue()).singleElement()
+				.extracting(CategoryCount::getCount).isEqualTo(2L);
+	}
+
+	@Test
+	void hasProductsReadsCounter() {
+		when(countDao.findById("c1")).thenReturn(Mono.just(new CategoryCount("c1", 2)));
+		when(countDao.findById("c2")).thenReturn(Mono.just(new CategoryCount("c2", 0)));
+		when(countDao.findById("c3")).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.hasProducts("c1")).expectNext(true).verifyComplete();
+		StepVerifier.create(service.hasProducts("c2")).expectNext(false).verifyComplete();
+		StepVerifier.create(service.hasProducts("c3")).expectNext(false).verifyComplete();
+	}
+
+	private ArgumentCaptor<Query> captureUpserts() {
+		when(mongoTemplate.upsert(any(Query.class), any(Update.class), eq(CategoryCount.class)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+		return ArgumentCaptor.forClass(Query.class);
+	}
+
+	private static Category category(String id) {
+		Category category = new Category("test");
+		category.setId(id);
+		return category;
+	}
+
+}
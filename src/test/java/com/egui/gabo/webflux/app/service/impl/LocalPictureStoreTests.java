@@ -0,0 +1,118 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.DefaultPartHttpMessageReader;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.http.codec.multipart.Part;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+
+import reactor.blockhound.BlockingOperationError;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+/**
+ * Runs the store from a non-blocking thread, BlockHound (installed by
+ * blockhound-junit-platform) fails any blocking call made there.
+ */
+class LocalPictureStoreTests {
+
+	@TempDir
+	Path uploads;
+
+	private Scheduler scheduler;
+
+	private LocalPictureStore store;
+
+	@BeforeEach
+	void setUp() {
+		scheduler = Schedulers.newBoundedElastic(2, 10, "picture-store-test");
+		store = new LocalPictureStore(uploads.toString(), scheduler);
+	}
+
+	@AfterEach
+	void tearDown() {
+		scheduler.dispose();
+	}
+
+	@Test
+	void saveAndLoadDoNotBlockEventLoop() throws Exception {
+		// real multipart FilePart, handled on a non-blocking thread like the event loop
+		Mono<Resource> saved = upload("pic.png", new byte[] { 1, 2, 3 })
+				.publishOn(Schedulers.parallel())
+				.flatMap(file -> store.save("pic.png", file))
+				.then(store.load("pic.png"));
+
+		StepVerifier.create(saved)
+				.expectNextMatches(image -> "pic.png".equals(image.getFilename()))
+				.verifyComplete();
+
+		assertThat(Files.readAllBytes(uploads.resolve("pic.png"))).containsExactly(1, 2, 3);
+	}
+
+	@Test
+	void loadOutsideUploadDirectoryIsRejected() {
+		StepVerifier.create(store.load("../secret.txt"))
+				.expectError(IllegalArgumentException.class)
+				.verify();
+	}
+
+	@Test
+	void loadMissingPictureIsEmpty() {
+		StepVerifier.create(store.load("missing.png").subscribeOn(Schedulers.parallel()))
+				.verifyComplete();
+	}
+
+	@Test
+	void blockingOnEventLoopIsDetected() {
+		StepVerifier.create(Mono.fromRunnable(() -> {
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}).subscribeOn(Schedulers.parallel()))
+				.expectError(BlockingOperationError.class)
+				.verify();
+	}
+
+	/**
+	 * Parses a multipart/form-data request with a single file part, as WebFlux
+	 * does for @RequestPart FilePart.
+	 */
+	private static Mono<FilePart> upload(String filename, byte[] content) {
+		String boundary = "picture-store-test";
+		String head = "--" + boundary + "\r\n"
+				+ "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+				+ "Content-Type: application/octet-stream\r\n\r\n";
+		String tail = "\r\n--" + boundary + "--\r\n";
+
+		DefaultDataBufferFactory buffers = DefaultDataBufferFactory.sharedInstance;
+		MockServerHttpRequest request = MockServerHttpRequest.post("/upload")
+				.contentType(MediaType.parseMediaType("multipart/form-data;boundary=" + boundary))
+				.body(Flux.just(buffers.wrap(head.getBytes(StandardCharsets.UTF_8)), buffers.wrap(content),
+						buffers.wrap(tail.getBytes(StandardCharsets.UTF_8))));
+
+		return new DefaultPartHttpMessageReader()
+				.read(ResolvableType.forClass(Part.class), request, Map.of())
+				.cast(FilePart.class)
+				.single();
+	}
+
+}
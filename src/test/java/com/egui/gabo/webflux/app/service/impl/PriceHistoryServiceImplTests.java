@@ -0,0 +1,127 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.ReactiveIndexOperations;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.egui.gabo.webflux.app.models.document.PriceHistory;
+import com.egui.gabo.webflux.app.models.document.PricePoint;
+import com.mongodb.client.result.UpdateResult;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class PriceHistoryServiceImplTests {
+
+	@Mock
+	private ReactiveMongoTemplate mongoTemplate;
+
+	@InjectMocks
+	private PriceHistoryServiceImpl service;
+
+	@BeforeEach
+	void setUp() {
+		ReflectionTestUtils.setField(service, "bucketSize", Duration.ofDays(1));
+		ReflectionTestUtils.setField(service, "bucketCapacity", 200);
+	}
+
+	@Test
+	void bucketStartTruncatesToWindow() {
+		assertThat(service.bucketStart(date("2026-10-19T13:45:10Z"))).isEqualTo(date("2026-10-19T00:00:00Z"));
+		assertThat(service.bucketStart(date("2026-10-19T00:00:00Z"))).isEqualTo(date("2026-10-19T00:00:00Z"));
+		assertThat(service.bucketStart(date("2026-10-18T23:59:59.999Z"))).isEqualTo(date("2026-10-18T00:00:00Z"));
+	}
+
+	@Test
+	void recordUpsertsIntoBucketWithRoom() {
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+		when(mongoTemplate.upsert(query.capture(), update.capture(), eq(PriceHistory.class)))
+				.thenReturn(Mono.just(UpdateResult.acknowledged(0, 0L, null)));
+
+		StepVerifier.create(service.record("p1", 10.0, date("2026-10-19T13:45:10Z"))).verifyComplete();
+
+		Document filter = query.getValue().getQueryObject();
+		assertThat(filter.get("productId")).isEqualTo("p1");
+		assertThat(filter.get("bucketStart")).isEqualTo(date("2026-10-19T00:00:00Z"));
+		assertThat(filter.get("count")).isEqualTo(new Document("$lt", 200));
+
+		Document changes = update.getValue().getUpdateObject();
+		assertThat(changes.get("$inc")).isEqualTo(new Document("count", 1));
+		assertThat(changes).containsKey("$push");
+	}
+
+	@Test
+	void findPricesIsInclusiveAtRangeEdges() {
+		Date from = date("2026-10-18T12:00:00Z");
+		Date to = date("2026-10-19T12:00:00Z");
+
+		ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+		when(mongoTemplate.find(query.capture(), eq(PriceHistory.class))).thenReturn(Flux.just(
+				bucket(point(1.0, "2026-10-18T11:59:59.999Z"), point(2.0, "2026-10-18T12:00:00Z"),
+						point(3.0, "2026-10-18T23:00:00Z")),
+				bucket(point(4.0, "2026-10-19T12:00:00Z"), point(5.0, "2026-10-19T12:00:00.001Z"))));
+
+		StepVerifier.create(service.findPrices("p1", from, to).map(PricePoint::getPrice))
+				.expectNext(2.0, 3.0, 4.0)
+				.verifyComplete();
+
+		// first bucket read is the one containing "from"
+		Document bucketStart = (Document) query.getValue().getQueryObject().get("bucketStart");
+		assertThat(bucketStart.get("$gte")).isEqualTo(date("2026-10-18T00:00:00Z"));
+		assertThat(bucketStart.get("$lte")).isEqualTo(to);
+	}
+
+	@Test
+	void ensureIndexesDoesNotRequireUniqueBuckets() {
+		ReactiveIndexOperations indexOps = mock(ReactiveIndexOperations.class);
+		when(mongoTemplate.indexOps(PriceHistory.class)).thenReturn(indexOps);
+		when(indexOps.createIndex(any())).thenReturn(Mono.just("product_bucket_idx"));
+
+		StepVerifier.create(service.ensureIndexes()).expectNext("product_bucket_idx").verifyComplete();
+
+		ArgumentCaptor<IndexDefinition> index = ArgumentCaptor.forClass(IndexDefinition.class);
+		verify(indexOps).createIndex(index.capture());
+		assertThat(index.getValue().getIndexOptions()).doesNotContainKey("unique");
+	}
+
+	private static PriceHistory bucket(PricePoint... points) {
+		PriceHistory bucket = new PriceHistory();
+		bucket.setSamples(List.of(points));
+		return bucket;
+	}
+
+	private static PricePoint point(Double price, String date) {
+		return new PricePoint(price, date(date));
+	}
+
+	private static Date date(String iso) {
+		return Date.from(Instant.parse(iso));
+	}
+
+}
@@ -0,0 +1,200 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import com.egui.gabo.webflux.app.models.document.Category;
+import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.service.ShardKeyStrategy;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+/**
+ * Three local partition collections standing in for shards.
+ */
+class ProductQueryRouterTests {
+
+	private final ReactiveMongoTemplate mongoTemplate = mock(ReactiveMongoTemplate.class);
+
+	@Test
+	void findAllMergesPartitionsSortedById() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), eq("products_0")))
+				.thenReturn(Flux.just(product("a1"), product("c3")));
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), eq("products_1")))
+				.thenReturn(Flux.just(product("b2")));
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), eq("products_2")))
+				.thenReturn(Flux.just(product("a2"), product("d4")));
+
+		StepVerifier.create(router.findAll().map(Product::getId))
+				.expectNext("a1", "a2", "b2", "c3", "d4")
+				.verifyComplete();
+	}
+
+	@Test
+	void findAllReturnsDuplicateAcrossPartitionsOnce() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), eq("products_0")))
+				.thenReturn(Flux.just(product("a1"), product("p1")));
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), eq("products_1")))
+				.thenReturn(Flux.just(product("p1")));
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), eq("products_2")))
+				.thenReturn(Flux.just(product("b2")));
+
+		StepVerifier.create(router.findAll().map(Product::getId))
+				.expectNext("a1", "b2", "p1")
+				.verifyComplete();
+	}
+
+	@Test
+	void findByCategoryTargetsSinglePartition() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+		String target = "products_" + ShardKeyStrategy.partitionOf("cat-1", 3);
+
+		when(mongoTemplate.find(any(Query.class), eq(Product.class), anyString())).thenReturn(Flux.empty());
+
+		StepVerifier.create(router.findByCategory("cat-1")).verifyComplete();
+
+		for (String collection : router.collections()) {
+			if (collection.equals(target)) {
+				verify(mongoTemplate).find(any(Query.class), eq(Product.class), eq(collection));
+			} else {
+				verify(mongoTemplate, never()).find(any(Query.class), eq(Product.class), eq(collection));
+			}
+		}
+	}
+
+	@Test
+	void replaceMovesProductWhenCategoryChangesPartition() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+
+		Product previous = product("p1", categoryInOtherPartition("cat-1", 3));
+		Product updated = product("p1", "cat-1");
+		String target = "products_" + ShardKeyStrategy.partitionOf("cat-1", 3);
+		String old = "products_" + ShardKeyStrategy.partitionOf(previous.getCategory().getId(), 3);
+
+		when(mongoTemplate.findAndReplace(any(Query.class), eq(updated), any(FindAndReplaceOptions.class),
+				eq(target))).thenReturn(Mono.empty());
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Product.class), anyString())).thenReturn(Mono.empty());
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Product.class), eq(old)))
+				.thenReturn(Mono.just(previous));
+
+		StepVerifier.create(router.replace(updated)).expectNext(previous).verifyComplete();
+
+		// saved in the new partition before being removed from the old one
+		InOrder order = inOrder(mongoTemplate);
+		order.verify(mongoTemplate).findAndReplace(any(Query.class), eq(updated),
+				any(FindAndReplaceOptions.class), eq(target));
+		order.verify(mongoTemplate).findAndRemove(any(Query.class), eq(Product.class), eq(old));
+	}
+
+	@Test
+	void replaceInSamePartitionReturnsPreviousVersion() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+
+		Product previous = product("p1", "cat-1");
+		Product updated = product("p1", "cat-1");
+
+		when(mongoTemplate.findAndReplace(any(Query.class), eq(updated), any(FindAndReplaceOptions.class),
+				anyString())).thenReturn(Mono.just(previous));
+
+		StepVerifier.create(router.replace(updated)).expectNext(previous).verifyComplete();
+
+		verify(mongoTemplate, never()).findAndRemove(any(Query.class), eq(Product.class), anyString());
+	}
+
+	@Test
+	void replaceNewProductAssignsIdAndInserts() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.ID, 3);
+
+		Product created = product(null, "cat-1");
+
+		when(mongoTemplate.insert(any(Product.class), anyString())).thenAnswer(inv -> Mono.just(inv.getArgument(0)));
+
+		StepVerifier.create(router.replace(created))
+				.expectNextMatches(previous -> previous.getId() == null)
+				.verifyComplete();
+
+		assertThat(created.getId()).isNotNull();
+		verify(mongoTemplate).insert(created, "products_" + ShardKeyStrategy.partitionOf(created.getId(), 3));
+	}
+
+	@Test
+	void deleteWithStaleCategoryRemovesFromActualPartition() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+
+		Product stored = product("p1", categoryInOtherPartition("cat-1", 3));
+		Product stale = product("p1", "cat-1");
+		String actual = "products_" + ShardKeyStrategy.partitionOf(stored.getCategory().getId(), 3);
+
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Product.class), anyString())).thenReturn(Mono.empty());
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Product.class), eq(actual)))
+				.thenReturn(Mono.just(stored));
+
+		StepVerifier.create(router.delete(stale)).expectNext(stored).verifyComplete();
+	}
+
+	@Test
+	void deleteOfMissingProductIsEmpty() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.CATEGORY, 3);
+
+		when(mongoTemplate.findAndRemove(any(Query.class), eq(Product.class), anyString())).thenReturn(Mono.empty());
+
+		StepVerifier.create(router.delete(product("p1", "cat-1"))).verifyComplete();
+	}
+
+	@Test
+	void singlePartitionUsesProductsCollection() {
+		ProductQueryRouter router = new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.ID, 1);
+
+		assertThat(router.collections()).isEqualTo(List.of("products"));
+	}
+
+	@Test
+	void rejectsLessThanOnePartition() {
+		assertThatIllegalArgumentException()
+				.isThrownBy(() -> new ProductQueryRouter(mongoTemplate, ShardKeyStrategy.ID, 0));
+	}
+
+	private static Product product(String id) {
+		return product(id, null);
+	}
+
+	private static Product product(String id, String categoryId) {
+		Category category = new Category("test");
+		category.setId(categoryId);
+		Product p = new Product("test", 1.0, category);
+		p.setId(id);
+		return p;
+	}
+
+	private static String categoryInOtherPartition(String categoryId, int partitions) {
+		int partition = ShardKeyStrategy.partitionOf(categoryId, partitions);
+		for (int i = 0;; i++) {
+			if (ShardKeyStrategy.partitionOf("cat-" + i, partitions) != partition) {
+				return "cat-" + i;
+			}
+		}
+	}
+
+}
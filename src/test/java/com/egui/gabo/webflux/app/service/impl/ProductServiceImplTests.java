@@ -0,0 +1,124 @@
+package com.egui.gabo.webflux.app.service.impl;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.egui.gabo.webflux.app.models.document.Category;
+import com.egui.gabo.webflux.app.models.document.Product;
+import com.egui.gabo.webflux.app.models.repository.CategorieRepository;
+import com.egui.gabo.webflux.app.service.CategoryCountService;
+import com.egui.gabo.webflux.app.service.PriceHistoryService;
+
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+@ExtendWith(MockitoExtension.class)
+class ProductServiceImplTests {
+
+	@Mock
+	private ProductQueryRouter productRouter;
+
+	@Mock
+	private CategorieRepository categorieDao;
+
+	@Mock
+	private PriceHistoryService priceHistoryService;
+
+	@Mock
+	private CategoryCountService categoryCountService;
+
+	@InjectMocks
+	private ProductServiceImpl service;
+
+	@Test
+	void saveNewProductCountsItAndRecordsFirstPrice() {
+		Product created = product(10.0, "c1");
+		when(productRouter.replace(created)).thenReturn(Mono.just(new Product()));
+		when(priceHistoryService.record(eq("p1"), eq(10.0), any(Date.class))).thenReturn(Mono.empty());
+		when(categoryCountService.move(null, "c1")).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.save(created)).expectNext(created).verifyComplete();
+
+		verify(categoryCountService).move(null, "c1");
+		verify(priceHistoryService).record(eq("p1"), eq(10.0), any(Date.class));
+	}
+
+	@Test
+	void saveCategoryChangeMovesCounterWithoutPriceChange() {
+		Product updated = product(10.0, "c2");
+		when(productRouter.replace(updated)).thenReturn(Mono.just(product(10.0, "c1")));
+		when(categoryCountService.move("c1", "c2")).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.save(updated)).expectNext(updated).verifyComplete();
+
+		verify(categoryCountService).move("c1", "c2");
+		verify(priceHistoryService, never()).record(anyString(), any(), any());
+	}
+
+	@Test
+	void savePriceChangeRecordsHistoryAndKeepsCounter() {
+		Product updated = product(12.0, "c1");
+		when(productRouter.replace(updated)).thenReturn(Mono.just(product(10.0, "c1")));
+		when(priceHistoryService.record(eq("p1"), eq(12.0), any(Date.class))).thenReturn(Mono.empty());
+		when(categoryCountService.move("c1", "c1")).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.save(updated)).expectNext(updated).verifyComplete();
+
+		verify(priceHistoryService).record(eq("p1"), eq(12.0), any(Date.class));
+	}
+
+	@Test
+	void saveProductWithoutCategoryPassesNoCategory() {
+		Product updated = new Product("test", 10.0);
+		updated.setId("p1");
+		when(productRouter.replace(updated)).thenReturn(Mono.just(updated));
+		when(categoryCountService.move(null, null)).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.save(updated)).expectNext(updated).verifyComplete();
+
+		verify(categoryCountService).move(null, null);
+	}
+
+	@Test
+	void deleteDecrementsCategoryOfRemovedProduct() {
+		Product stale = product(10.0, "c1");
+		Product removed = product(10.0, "c2");
+		when(productRouter.delete(stale)).thenReturn(Mono.just(removed));
+		when(categoryCountService.move("c2", null)).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.delete(stale)).verifyComplete();
+
+		verify(categoryCountService).move("c2", null);
+	}
+
+	@Test
+	void deleteRemovingNothingKeepsCounter() {
+		Product stored = product(10.0, "c1");
+		when(productRouter.delete(stored)).thenReturn(Mono.empty());
+
+		StepVerifier.create(service.delete(stored)).verifyComplete();
+
+		verify(categoryCountService, never()).move(any(), any());
+	}
+
+	private static Product product(Double price, String categoryId) {
+		Category category = new Category("test");
+		category.setId(categoryId);
+		Product p = new Product("test", price, category);
+		p.setId("p1");
+		return p;
+	}
+
+}